@@ -10,6 +10,10 @@ import com.example.taxcalculator.dto.TimeToTargetRequest;
 import com.example.taxcalculator.dto.TimeToTargetResponse;
 import com.example.taxcalculator.dto.TakeHomeRequestDto;
 import com.example.taxcalculator.dto.CtcResponseDto;
+import com.example.taxcalculator.dto.RequiredCtcRequest;
+import com.example.taxcalculator.dto.RequiredCtcResponse;
+import com.example.taxcalculator.service.ScenarioStore;
+import com.example.taxcalculator.service.SimulationExecutor;
 import com.example.taxcalculator.service.TaxCalculationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,10 +22,12 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/v1/tax")
 // @CrossOrigin annotation removed, CORS will be handled globally
-@RequiredArgsConstructor // Injects TaxCalculationService via constructor
+@RequiredArgsConstructor // Injects TaxCalculationService, ScenarioStore and SimulationExecutor via constructor
 public class TaxController {
 
     private final TaxCalculationService taxCalculationService;
+    private final ScenarioStore scenarioStore;
+    private final SimulationExecutor simulationExecutor;
 
     @PostMapping("/calculate-take-home")
     public ResponseEntity<TakeHomeResponse> calculateTakeHome(@RequestBody CtcRequest request) {
@@ -63,7 +69,9 @@ public class TaxController {
             return ResponseEntity.badRequest().body(null);
         }
 
-        RangeSavingsResponse response = taxCalculationService.calculateSavingsForRange(request);
+        // Range results are served from the scenario store when this scenario was computed before
+        RangeSavingsResponse response = scenarioStore.getOrCompute(ScenarioStore.keyFor(request), RangeSavingsResponse.class,
+                () -> simulationExecutor.run(() -> taxCalculationService.calculateSavingsForRange(request)));
         return ResponseEntity.ok(response);
     }
 
@@ -75,7 +83,8 @@ public class TaxController {
             return ResponseEntity.badRequest().body(null); // Consider more informative error
         }
 
-        TimeToTargetResponse response = taxCalculationService.calculateTimeToTargetForRange(request);
+        TimeToTargetResponse response = scenarioStore.getOrCompute(ScenarioStore.keyFor(request), TimeToTargetResponse.class,
+                () -> simulationExecutor.run(() -> taxCalculationService.calculateTimeToTargetForRange(request)));
         return ResponseEntity.ok(response);
     }
 
@@ -95,4 +104,22 @@ public class TaxController {
         CtcResponseDto response = taxCalculationService.calculateCtcForTakeHome(request);
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    // Endpoint to calculate the minimum CTC needed to reach a target amount within N months
+    @PostMapping("/calculate-required-ctc")
+    public ResponseEntity<RequiredCtcResponse> calculateRequiredCtc(@RequestBody RequiredCtcRequest request) {
+        // Basic validation (more robust validation done in service)
+        if (request.getMonthlyExpense() < 0 || request.getTargetAmount() <= 0
+            || request.getTargetMonths() <= 0 || request.getTargetMonths() > 12000 // Time-to-target caps at 1000 years
+            || (request.getCurrentInvestments() != null && request.getCurrentInvestments() < 0)) {
+            return ResponseEntity.badRequest().body(null); // Consider more informative error
+        }
+
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(request);
+        if (response.getRequiredAnnualCtc() <= 0) {
+            // A reachable target always needs a positive CTC; zero means the service rejected it (see message)
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.taxcalculator.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class RangeSavingsResponse {
     private List<RangeSavingsResult> results;
@@ -0,0 +1,12 @@
+package com.example.taxcalculator.dto;
+
+import lombok.Data;
+
+@Data
+public class RequiredCtcRequest {
+    private double monthlyExpense;
+    private double targetAmount;
+    private int targetMonths; // Horizon within which the target should be reached
+    private Double currentInvestments;
+    private Double investmentCagr; // Annual CAGR for investments
+}
@@ -0,0 +1,13 @@
+package com.example.taxcalculator.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RequiredCtcResponse {
+    private double requiredAnnualCtc;
+    private double requiredMonthlySavings; // Monthly net savings needed to hit the target in time
+    private double monthlyTakeHome; // Take-home at the required CTC, for context
+    private String message; // Optional: e.g. when the target is already met
+}
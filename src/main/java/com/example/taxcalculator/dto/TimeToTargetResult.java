@@ -1,9 +1,13 @@
 package com.example.taxcalculator.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class TimeToTargetResult {
     private double annualCtc;
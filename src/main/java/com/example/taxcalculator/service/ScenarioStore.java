@@ -0,0 +1,403 @@
+package com.example.taxcalculator.service;
+
+import com.example.taxcalculator.dto.CtcRangeRequest;
+import com.example.taxcalculator.dto.RangeSavingsResult;
+import com.example.taxcalculator.dto.RequiredCtcRequest;
+import com.example.taxcalculator.dto.TimeToTargetRequest;
+import com.example.taxcalculator.dto.TimeToTargetResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Append-only, memory-mapped store of computed scenario results, keyed by normalized request.
+// The index is rebuilt by scanning the mapped file on startup, so restarted instances start warm.
+//
+// File header:   [int MAGIC][int FORMAT_VERSION][long algorithm fingerprint]
+// Record layout: [int keyLength][int valueLength][int hits][key bytes (UTF-8)][value bytes (JSON)]
+// keyLength is written last, so a record only becomes visible on the next scan once it is complete.
+// The mapped region starts zero-filled, which makes a zero keyLength the end-of-log marker.
+//
+// A file written by another format version or by calculations with a different fingerprint is
+// discarded on startup. When the file fills up, the most requested entries are compacted into a
+// fresh file of up to half the capacity, so one-off scenarios can't permanently crowd out popular ones.
+//
+// The store is single-writer: each instance holds an exclusive lock on a sibling ".lock" file while
+// the store is open. Another process (or instance) pointed at the same path finds the lock taken and
+// runs with the store disabled, computing every request. Give each instance its own path to scale out.
+@Component
+public class ScenarioStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ScenarioStore.class);
+    private static final int MAGIC = 0x5443_5353; // "TCSS"
+    private static final int FORMAT_VERSION = 2; // Bump for layout changes, or calculation changes the probes can't see
+    private static final int FILE_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    private final ObjectMapper objectMapper;
+    private final LongSupplier fingerprintSource; // Only evaluated when the store is enabled: the probes are slow
+    private final String path;
+    private final int capacityMb;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    // Guards buffer/writePosition. A ReentrantLock rather than synchronized, so virtual threads
+    // waiting on it (or holding it during compaction I/O) don't pin their carrier thread on JDK 21.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private boolean enabled; // Cleared when the file can't be locked or mapped
+    private long algorithmFingerprint;
+    private FileChannel lockChannel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+
+    @Autowired
+    public ScenarioStore(ObjectMapper objectMapper, TaxCalculationService taxCalculationService,
+                         @Value("${scenario-store.enabled:true}") boolean enabled,
+                         @Value("${scenario-store.path:data/scenario-store.dat}") String path,
+                         @Value("${scenario-store.capacity-mb:64}") int capacityMb) {
+        this(objectMapper, () -> algorithmFingerprint(taxCalculationService), enabled, path, capacityMb);
+    }
+
+    ScenarioStore(ObjectMapper objectMapper, LongSupplier fingerprintSource, boolean enabled, String path, int capacityMb) {
+        this.objectMapper = objectMapper;
+        this.fingerprintSource = fingerprintSource;
+        this.enabled = enabled;
+        this.path = path;
+        this.capacityMb = capacityMb;
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path file = Path.of(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            if (!lock(file)) {
+                log.info("Scenario store {} is in use by another process, computing every request instead", file);
+                enabled = false;
+                return;
+            }
+            algorithmFingerprint = fingerprintSource.getAsLong();
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() > 0 && !headerMatches(channel)) {
+                    // Results from other code would be served as if current: start empty instead
+                    log.info("Scenario store {} was written by a different version, discarding it", file);
+                    channel.truncate(0);
+                }
+                // The mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacityMb * 1024 * 1024);
+            }
+            writeHeader(buffer);
+            writePosition = rebuildIndex();
+            log.info("Scenario store mapped from {} with {} entries ({} bytes used)", file, index.size(), writePosition);
+        } catch (IOException | RuntimeException e) {
+            // Store is an optimization only: fall back to computing every request
+            log.warn("Scenario store disabled, could not map {}: {}", path, e.getMessage());
+            close();
+            enabled = false;
+        }
+    }
+
+    // Takes the exclusive lock on the sibling lock file, held until close()
+    private boolean lock(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another store in this JVM
+        }
+        if (lock == null) {
+            channel.close();
+            return false;
+        }
+        lockChannel = channel;
+        return true;
+    }
+
+    @PreDestroy
+    void close() {
+        writeLock.lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            buffer = null;
+            if (lockChannel != null) {
+                lockChannel.close(); // Releases the file lock
+                lockChannel = null;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to release scenario store lock for {}: {}", path, e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns the stored result for the key, or computes, appends and returns it
+    public <T> T getOrCompute(String key, Class<T> type, Supplier<T> compute) {
+        if (!enabled) {
+            return compute.get();
+        }
+        Optional<T> stored = read(key, type);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        T result = compute.get();
+        append(key, result);
+        return result;
+    }
+
+    public static String keyFor(CtcRangeRequest request) {
+        return String.join("|", "savings-range",
+                normalize(request.getMinCtc()),
+                normalize(request.getMaxCtc()),
+                normalize(request.getMonthlyExpense()),
+                normalize(defaultIncrement(request.getIncrement())));
+    }
+
+    public static String keyFor(TimeToTargetRequest request) {
+        // Nulls are mapped to the same defaults TaxCalculationService applies
+        return String.join("|", "time-to-target",
+                normalize(request.getMinCtc()),
+                normalize(request.getMaxCtc()),
+                normalize(request.getMonthlyExpense()),
+                normalize(request.getTargetAmount()),
+                normalize(defaultIncrement(request.getIncrement())),
+                normalize(Optional.ofNullable(request.getCurrentInvestments()).orElse(0.0)),
+                normalize(Optional.ofNullable(request.getInvestmentCagr()).orElse(0.0)));
+    }
+
+    // Hash of the service's results on fixed probe scenarios: slab, rebate and simulation loop changes alter it
+    static long algorithmFingerprint(TaxCalculationService service) {
+        long hash = FORMAT_VERSION;
+        CtcRangeRequest savingsProbe = new CtcRangeRequest();
+        savingsProbe.setMinCtc(0);
+        savingsProbe.setMaxCtc(5000000);
+        savingsProbe.setMonthlyExpense(20000);
+        savingsProbe.setIncrement(25000.0); // Hits every slab boundary and the 12L rebate threshold
+        for (RangeSavingsResult result : service.calculateSavingsForRange(savingsProbe).getResults()) {
+            hash = mix(hash, result.getMonthlySavings());
+        }
+
+        double[][] timeToTargetProbes = {
+                // minCtc, maxCtc, monthlyExpense, targetAmount, currentInvestments, investmentCagr
+                { 300000, 5000000, 30000, 10000000, 100000, 0.1 },
+                { 300000, 5000000, 30000, 10000000, 0, 0 },
+                { 1000000, 1000000, 83333, 1000000, 0, 0 }, // Runs into the 12,000-month cap
+        };
+        for (double[] probe : timeToTargetProbes) {
+            TimeToTargetRequest request = new TimeToTargetRequest();
+            request.setMinCtc(probe[0]);
+            request.setMaxCtc(probe[1]);
+            request.setMonthlyExpense(probe[2]);
+            request.setTargetAmount(probe[3]);
+            request.setIncrement(100000.0);
+            request.setCurrentInvestments(probe[4]);
+            request.setInvestmentCagr(probe[5]);
+            for (TimeToTargetResult result : service.calculateTimeToTargetForRange(request).getResults()) {
+                hash = mix(hash, result.getTimeToTargetMonths());
+            }
+        }
+
+        RequiredCtcRequest requiredCtcProbe = new RequiredCtcRequest();
+        requiredCtcProbe.setMonthlyExpense(60000);
+        requiredCtcProbe.setTargetAmount(5000000);
+        requiredCtcProbe.setTargetMonths(60);
+        requiredCtcProbe.setInvestmentCagr(0.12);
+        return mix(hash, service.calculateRequiredCtcForTarget(requiredCtcProbe).getRequiredAnnualCtc());
+    }
+
+    private static long mix(long hash, double value) {
+        return hash * 1_000_003L + Double.doubleToLongBits(value);
+    }
+
+    private static double defaultIncrement(Double increment) {
+        return (increment != null && increment > 0) ? increment : 500000.0;
+    }
+
+    private static String normalize(double value) {
+        return Double.toString(value + 0.0); // + 0.0 folds -0.0 into 0.0
+    }
+
+    private <T> Optional<T> read(String key, Class<T> type) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        // Deserialize straight from a view of the mapped region, without copying it onto the heap first
+        try {
+            T value = objectMapper.readValue(
+                    new ByteBufferBackedInputStream(entry.buffer().slice(entry.offset(), entry.length())), type);
+            // Persist popularity so compaction after a restart still keeps the most requested scenarios
+            entry.buffer().putInt(entry.hitsOffset(), (int) Math.min(entry.hits().incrementAndGet(), Integer.MAX_VALUE));
+            return Optional.of(value);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable scenario store entry {}: {}", key, e.getMessage());
+            index.remove(key);
+            return Optional.empty();
+        }
+    }
+
+    private void append(String key, Object value) {
+        if (index.containsKey(key)) {
+            return; // Another request already stored the same scenario
+        }
+        // Serialize outside the lock: large range results take a while and need no shared state
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes;
+        try {
+            valueBytes = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            log.warn("Failed to serialize scenario {}: {}", key, e.getMessage());
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (buffer == null || index.containsKey(key)) {
+                return; // Closed, or stored by a concurrent request in the meantime
+            }
+            int recordLength = RECORD_HEADER_BYTES + keyBytes.length + valueBytes.length;
+            if (FILE_HEADER_BYTES + recordLength > compactedLimit()) {
+                log.debug("Scenario {} is too large for the store, not storing it", key);
+                return;
+            }
+            // Keep room for the zero end-of-log marker
+            if (recordLength > buffer.capacity() - writePosition - Integer.BYTES) {
+                compact();
+            }
+            index.put(key, writeRecord(buffer, writePosition, keyBytes, valueBytes, 1));
+            writePosition += recordLength;
+        } catch (IOException e) {
+            log.warn("Failed to store scenario {}: {}", key, e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Rewrites the most requested entries into a fresh file, up to half the capacity, and swaps it in.
+    // Entries still held by concurrent readers keep pointing at the old mapping, which stays valid.
+    private void compact() throws IOException {
+        Path file = Path.of(path);
+        Path compactedFile = file.resolveSibling(file.getFileName() + ".compact");
+        MappedByteBuffer compacted;
+        try (FileChannel channel = FileChannel.open(compactedFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            compacted = channel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity());
+        }
+        writeHeader(compacted);
+
+        List<Map.Entry<String, Entry>> byHits = new ArrayList<>(index.entrySet());
+        byHits.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().hits().get()).reversed());
+        Map<String, Entry> kept = new HashMap<>();
+        int position = FILE_HEADER_BYTES;
+        for (Map.Entry<String, Entry> e : byHits) {
+            Entry old = e.getValue();
+            byte[] keyBytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+            int recordLength = RECORD_HEADER_BYTES + keyBytes.length + old.length();
+            if (position + recordLength > compactedLimit()) {
+                continue; // A smaller, less popular entry may still fit
+            }
+            byte[] valueBytes = new byte[old.length()];
+            old.buffer().get(old.offset(), valueBytes);
+            kept.put(e.getKey(), writeRecord(compacted, position, keyBytes, valueBytes, old.hits().get()));
+            position += recordLength;
+        }
+        compacted.force();
+        Files.move(compactedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        index.putAll(kept);
+        index.keySet().retainAll(kept.keySet());
+        buffer = compacted;
+        writePosition = position;
+        log.info("Compacted scenario store to {} entries ({} bytes used)", kept.size(), position);
+    }
+
+    private int compactedLimit() {
+        return buffer.capacity() / 2;
+    }
+
+    private static Entry writeRecord(MappedByteBuffer target, int position, byte[] keyBytes, byte[] valueBytes, long hits) {
+        int hitsOffset = position + 2 * Integer.BYTES;
+        int valueOffset = position + RECORD_HEADER_BYTES + keyBytes.length;
+        target.putInt(position + Integer.BYTES, valueBytes.length);
+        target.putInt(hitsOffset, (int) Math.min(hits, Integer.MAX_VALUE));
+        target.put(position + RECORD_HEADER_BYTES, keyBytes);
+        target.put(valueOffset, valueBytes);
+        target.putInt(position, keyBytes.length); // Commit the record
+        return new Entry(target, valueOffset, valueBytes.length, hitsOffset, new AtomicLong(hits));
+    }
+
+    private boolean headerMatches(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC
+                && header.getInt(Integer.BYTES) == FORMAT_VERSION
+                && header.getLong(2 * Integer.BYTES) == algorithmFingerprint;
+    }
+
+    private void writeHeader(MappedByteBuffer target) {
+        target.putInt(0, MAGIC);
+        target.putInt(Integer.BYTES, FORMAT_VERSION);
+        target.putLong(2 * Integer.BYTES, algorithmFingerprint);
+    }
+
+    // Scans committed records after the file header and returns the next write position
+    private int rebuildIndex() {
+        int position = FILE_HEADER_BYTES;
+        int limit = buffer.capacity();
+        while (position + RECORD_HEADER_BYTES <= limit) {
+            int keyLength = buffer.getInt(position);
+            int valueLength = buffer.getInt(position + Integer.BYTES);
+            int hitsOffset = position + 2 * Integer.BYTES;
+            if (keyLength <= 0 || valueLength < 0
+                    || (long) position + RECORD_HEADER_BYTES + keyLength + valueLength > limit) {
+                break; // End of log, or a torn record from an interrupted write
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(position + RECORD_HEADER_BYTES, keyBytes);
+            int valueOffset = position + RECORD_HEADER_BYTES + keyLength;
+            index.put(new String(keyBytes, StandardCharsets.UTF_8),
+                    new Entry(buffer, valueOffset, valueLength, hitsOffset, new AtomicLong(buffer.getInt(hitsOffset))));
+            position = valueOffset + valueLength;
+        }
+        return position;
+    }
+
+    private record Entry(MappedByteBuffer buffer, int offset, int length, int hitsOffset, AtomicLong hits) {
+    }
+}
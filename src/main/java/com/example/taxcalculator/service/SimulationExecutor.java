@@ -0,0 +1,57 @@
+package com.example.taxcalculator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs CPU-heavy range simulations. With virtual-thread request handling (spring.threads.virtual.enabled)
+// the number of in-flight requests is no longer bounded by Tomcat's pool, so simulations are handed to a
+// fixed pool of platform threads instead; the waiting virtual thread costs nothing while it is parked.
+// On platform request threads Tomcat's pool already bounds the work, so tasks simply run inline.
+@Component
+public class SimulationExecutor {
+
+    private final ExecutorService pool; // null when requests run on platform threads
+
+    public SimulationExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                              @Value("${simulation.pool-size:0}") int poolSize) {
+        if (virtualThreads) {
+            // Default to one simulation thread per core
+            int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(threads,
+                    task -> new Thread(task, "simulation-" + threadNumber.getAndIncrement()));
+        } else {
+            this.pool = null;
+        }
+    }
+
+    public <T> T run(Supplier<T> task) {
+        if (pool == null) {
+            return task.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, pool).join();
+        } catch (CompletionException e) {
+            // Surface the task's own exception, as if it had run inline
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -13,6 +13,8 @@ public class TaxCalculationService {
     private static final double REBATE_LIMIT = 60000.0;
     // Rebate applies if *taxable income* is up to the threshold (corrected interpretation)
     private static final double REBATE_TAXABLE_INCOME_THRESHOLD = 1150000.0; // 12L Gross - 50k Deduction
+    private static final int MAX_SIMULATION_MONTHS = 12000; // Safety cap for time-to-target: 1000 years
+    private static final double MIN_MONTHLY_SURPLUS = 0.01; // Smallest savings the time-to-target loop accepts
 
     public TakeHomeResponse calculateTakeHome(CtcRequest request) {
         double annualCtc = request.getAnnualCtc();
@@ -172,7 +174,7 @@ public class TaxCalculationService {
                     // Add all disposable income as new investments
                     tempNetWorth += monthlyNetSavings;
 
-                    if (months > 12000) { // Safety break: 1000 years
+                    if (months > MAX_SIMULATION_MONTHS) { // Safety break: 1000 years
                         timeMonths = Double.POSITIVE_INFINITY;
                         break;
                     }
@@ -189,7 +191,7 @@ public class TaxCalculationService {
                     // timeMonths should already be Double.POSITIVE_INFINITY from the checks within the loop
                     // This else branch handles the case where the loop finishes (e.g. due to stagnation)
                     // but timeMonths wasn't explicitly set within the loop for some reason (defensive coding)
-                    if (months > 12000 || (previousIterationTempNetWorth != null && tempNetWorth <= previousIterationTempNetWorth && tempNetWorth < targetAmount)) {
+                    if (months > MAX_SIMULATION_MONTHS || (previousIterationTempNetWorth != null && tempNetWorth <= previousIterationTempNetWorth && tempNetWorth < targetAmount)) {
                          timeMonths = Double.POSITIVE_INFINITY;
                     } else {
                         // This case should ideally not be hit if logic is correct,
@@ -330,4 +332,103 @@ public class TaxCalculationService {
                 .build();
     }
 
-} 
\ No newline at end of file
+    // Method to calculate the minimum Annual CTC needed to reach a target amount within a number of months.
+    // Inverts the time-to-target savings model: solve for monthly net savings in closed form, then for the CTC.
+    // Invalid or unreachable requests are returned with a zero requiredAnnualCtc and a message.
+    public RequiredCtcResponse calculateRequiredCtcForTarget(RequiredCtcRequest request) {
+        double monthlyExpense = request.getMonthlyExpense();
+        double targetAmount = request.getTargetAmount();
+        int targetMonths = request.getTargetMonths();
+        double currentInvestments = Optional.ofNullable(request.getCurrentInvestments()).orElse(0.0);
+        double investmentCagr = Optional.ofNullable(request.getInvestmentCagr()).orElse(0.0); // Annual CAGR
+
+        // Basic validation, mirroring the time-to-target simulation limits (1000 years max)
+        if (monthlyExpense < 0 || targetAmount <= 0 || currentInvestments < 0
+                || targetMonths <= 0 || targetMonths > MAX_SIMULATION_MONTHS) {
+            return RequiredCtcResponse.builder()
+                    .requiredAnnualCtc(0)
+                    .message("Invalid input for required CTC calculation.")
+                    .build();
+        }
+
+        // Net worth after n months of the time-to-target loop:
+        //   W(n) = W0 * (1 + r)^n + S * ((1 + r)^n - 1) / r   (growth only applied when CAGR > 0)
+        //   W(n) = W0 + S * n                                 (no growth)
+        // Solved for S after dividing through by (1 + r)^n, which overflows for high CAGR over long
+        // horizons; the discount factor (1 + r)^-n only underflows to 0 and keeps the result finite.
+        double monthlyInvestmentGrowthRate = investmentCagr > 0 ? investmentCagr / 12.0 : 0.0;
+        double requiredMonthlySavings;
+        if (monthlyInvestmentGrowthRate > 0) {
+            double discountFactor = Math.pow(1 + monthlyInvestmentGrowthRate, -targetMonths);
+            requiredMonthlySavings = (targetAmount * discountFactor - currentInvestments)
+                    / ((1 - discountFactor) / monthlyInvestmentGrowthRate);
+        } else {
+            requiredMonthlySavings = (targetAmount - currentInvestments) / targetMonths;
+        }
+        if (!Double.isFinite(requiredMonthlySavings)) {
+            return RequiredCtcResponse.builder()
+                    .requiredAnnualCtc(0)
+                    .message("Could not solve for the required savings with these inputs.")
+                    .build();
+        }
+
+        String message = null;
+        if (requiredMonthlySavings <= 0) {
+            // Existing investments reach the target on their own. The time-to-target loop still treats
+            // take-home equal to expenses as unreachable, so keep a one paisa monthly surplus.
+            requiredMonthlySavings = MIN_MONTHLY_SURPLUS;
+            message = "Current investments reach the target without additional savings.";
+        } else {
+            // Round up to the next paisa so floating-point drift in the monthly loop can't cost an extra month
+            requiredMonthlySavings = Math.ceil(requiredMonthlySavings * 100.0) / 100.0;
+        }
+
+        double requiredYearlyTakeHome = (monthlyExpense + requiredMonthlySavings) * 12.0;
+        double requiredAnnualCtc = findMinimumCtcForTakeHome(requiredYearlyTakeHome);
+        if (Double.isInfinite(requiredAnnualCtc)) {
+            return RequiredCtcResponse.builder()
+                    .requiredAnnualCtc(0)
+                    .requiredMonthlySavings(requiredMonthlySavings)
+                    .message("Target is not reachable within the supported CTC range.")
+                    .build();
+        }
+
+        double yearlyTakeHome = requiredAnnualCtc - calculateTax(Math.max(0, requiredAnnualCtc - STANDARD_DEDUCTION));
+
+        return RequiredCtcResponse.builder()
+                .requiredAnnualCtc(requiredAnnualCtc)
+                .requiredMonthlySavings(requiredMonthlySavings)
+                .monthlyTakeHome(yearlyTakeHome / 12.0)
+                .message(message)
+                .build();
+    }
+
+    // Smallest CTC whose take-home is at least the desired amount, or +Infinity if beyond the search range.
+    // Up to the 87A rebate threshold no tax is payable, so take-home equals CTC there. Above it the take-home
+    // is monotonic again (the rebate cliff is the only dip), so a bisection that keeps the upper bound works.
+    private double findMinimumCtcForTakeHome(double desiredYearlyTakeHome) {
+        double rebateThresholdCtc = REBATE_TAXABLE_INCOME_THRESHOLD + STANDARD_DEDUCTION;
+        if (desiredYearlyTakeHome <= rebateThresholdCtc) {
+            return Math.max(0, desiredYearlyTakeHome);
+        }
+
+        double lowCtc = rebateThresholdCtc;
+        double highCtc = 100000000.0; // Same upper bound as calculateCtcForTakeHome (10 Cr)
+        if (highCtc - calculateTax(highCtc - STANDARD_DEDUCTION) < desiredYearlyTakeHome) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Invariant: take-home(lowCtc) < desired <= take-home(highCtc)
+        for (int i = 0; i < 100 && highCtc - lowCtc > 0.01; i++) {
+            double midCtc = lowCtc + (highCtc - lowCtc) / 2.0;
+            double currentTakeHome = midCtc - calculateTax(midCtc - STANDARD_DEDUCTION);
+            if (currentTakeHome < desiredYearlyTakeHome) {
+                lowCtc = midCtc;
+            } else {
+                highCtc = midCtc;
+            }
+        }
+        return highCtc;
+    }
+
+}
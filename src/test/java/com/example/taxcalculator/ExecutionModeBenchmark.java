@@ -0,0 +1,142 @@
+package com.example.taxcalculator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Compares platform-thread and virtual-thread request execution under bursty, mixed traffic:
+// many cheap /calculate-take-home calls interleaved with slow /calculate-time-to-target range calls.
+// A steady closed-loop base load runs throughout; every few seconds a burst of extra clients joins
+// it for a short spike, which is where a bounded request pool queues and virtual threads don't.
+// Not part of the regular test run (the class name doesn't match Surefire's includes). Needs JDK 21:
+// on older JDKs Spring Boot ignores spring.threads.virtual.enabled. Run with:
+//   mvn test -Dtest=ExecutionModeBenchmark -Dbenchmark.concurrency=1000 -Dbenchmark.seconds=30
+class ExecutionModeBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 500);
+    private static final int WARMUP_SECONDS = Integer.getInteger("benchmark.warmup-seconds", 5);
+    private static final int MEASURE_SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int HEAVY_EVERY = Integer.getInteger("benchmark.heavy-every", 10); // 1 in N requests is a range call
+    private static final int BURST_CLIENTS = Integer.getInteger("benchmark.burst-clients", CONCURRENCY);
+    private static final int BURST_EVERY_SECONDS = Integer.getInteger("benchmark.burst-every-seconds", 5);
+    private static final int BURST_SECONDS = Integer.getInteger("benchmark.burst-seconds", 1);
+
+    private static final String TAKE_HOME_BODY = "{\"annualCtc\": 1800000}";
+    // Fine-grained range with a distant target: the brute-force traffic pattern that dominates load
+    private static final String TIME_TO_TARGET_BODY = "{\"minCtc\": 500000, \"maxCtc\": 5000000, \"increment\": 5000,"
+            + " \"monthlyExpense\": 40000, \"targetAmount\": 50000000, \"investmentCagr\": 0.1}";
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        Result platform = runMode(false);
+        Result virtual = runMode(true);
+
+        System.out.printf("%n%-10s %14s %18s %18s%n", "mode", "requests/s", "take-home p99 ms", "range p99 ms");
+        System.out.println(platform);
+        System.out.println(virtual);
+    }
+
+    private Result runMode(boolean virtualThreads) throws Exception {
+        // Scenario store is disabled so every range call is actually computed
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaxCalculatorApplication.class)
+                .properties("server.port=0",
+                        "scenario-store.enabled=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads)
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/tax";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            drive(client, baseUrl, WARMUP_SECONDS,
+                    Collections.synchronizedList(new ArrayList<>()), Collections.synchronizedList(new ArrayList<>()));
+            List<Long> takeHomeNanos = Collections.synchronizedList(new ArrayList<>());
+            List<Long> rangeNanos = Collections.synchronizedList(new ArrayList<>());
+            drive(client, baseUrl, MEASURE_SECONDS, takeHomeNanos, rangeNanos);
+
+            double throughput = (takeHomeNanos.size() + rangeNanos.size()) / (double) MEASURE_SECONDS;
+            return new Result(virtualThreads ? "virtual" : "platform", throughput,
+                    p99Millis(takeHomeNanos), p99Millis(rangeNanos));
+        }
+    }
+
+    // Each client runs on its own virtual thread, so the load generator itself is never the bottleneck
+    private void drive(HttpClient client, String baseUrl, int seconds, List<Long> takeHomeNanos, List<Long> rangeNanos)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                int clientId = c;
+                clients.submit(() -> sendUntilStopped(client, baseUrl, clientId, running, running, takeHomeNanos, rangeNanos));
+            }
+            long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            while (System.nanoTime() + Duration.ofSeconds(BURST_EVERY_SECONDS).toNanos() < end) {
+                Thread.sleep(Duration.ofSeconds(Math.max(0, BURST_EVERY_SECONDS - BURST_SECONDS)));
+                // Burst clients stop sending after BURST_SECONDS, but their in-flight requests are still measured
+                AtomicBoolean burst = new AtomicBoolean(true);
+                for (int c = 0; c < BURST_CLIENTS; c++) {
+                    int clientId = CONCURRENCY + c;
+                    clients.submit(() -> sendUntilStopped(client, baseUrl, clientId, burst, running, takeHomeNanos, rangeNanos));
+                }
+                Thread.sleep(Duration.ofSeconds(BURST_SECONDS));
+                burst.set(false);
+            }
+            Thread.sleep(Duration.ofNanos(Math.max(0, end - System.nanoTime())));
+            running.set(false);
+        }
+    }
+
+    private void sendUntilStopped(HttpClient client, String baseUrl, long clientId, AtomicBoolean sending,
+                                  AtomicBoolean measuring, List<Long> takeHomeNanos, List<Long> rangeNanos) {
+        long sent = clientId; // Staggers heavy calls across clients
+        while (sending.get()) {
+            boolean heavy = sent++ % HEAVY_EVERY == 0;
+            long start = System.nanoTime();
+            if (post(client, baseUrl + (heavy ? "/calculate-time-to-target" : "/calculate-take-home"),
+                    heavy ? TIME_TO_TARGET_BODY : TAKE_HOME_BODY) && measuring.get()) {
+                (heavy ? rangeNanos : takeHomeNanos).add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private boolean post(HttpClient client, String url, String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false; // Failed requests are left out of the latency figures
+        }
+    }
+
+    private static double p99Millis(List<Long> nanos) {
+        if (nanos.isEmpty()) {
+            return Double.NaN;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1) / 1_000_000.0;
+    }
+
+    private record Result(String mode, double throughput, double takeHomeP99Millis, double rangeP99Millis) {
+        @Override
+        public String toString() {
+            return String.format("%-10s %14.1f %18.2f %18.2f", mode, throughput, takeHomeP99Millis, rangeP99Millis);
+        }
+    }
+}
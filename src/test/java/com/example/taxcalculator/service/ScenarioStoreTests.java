@@ -0,0 +1,184 @@
+package com.example.taxcalculator.service;
+
+import com.example.taxcalculator.dto.TimeToTargetRequest;
+import com.example.taxcalculator.dto.TimeToTargetResponse;
+import com.example.taxcalculator.dto.TimeToTargetResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioStoreTests {
+
+    @TempDir
+    Path tempDir;
+
+    private static final long FINGERPRINT = ScenarioStore.algorithmFingerprint(new TaxCalculationService());
+
+    private ScenarioStore openStore() {
+        return openStore(FINGERPRINT);
+    }
+
+    private ScenarioStore openStore(long fingerprint) {
+        ScenarioStore store = new ScenarioStore(new ObjectMapper(), () -> fingerprint, true,
+                tempDir.resolve("scenarios.dat").toString(), 1);
+        store.open();
+        return store;
+    }
+
+    private TimeToTargetResponse sampleResponse() {
+        return TimeToTargetResponse.builder()
+                .results(List.of(
+                        TimeToTargetResult.builder().annualCtc(500000).timeToTargetMonths(Double.POSITIVE_INFINITY).build(),
+                        TimeToTargetResult.builder().annualCtc(1200000).timeToTargetMonths(15.0).build()))
+                .build();
+    }
+
+    @Test
+    void testComputesOnceThenServesStoredResult() {
+        ScenarioStore store = openStore();
+        AtomicInteger computations = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            TimeToTargetResponse response = store.getOrCompute("scenario", TimeToTargetResponse.class, () -> {
+                computations.incrementAndGet();
+                return sampleResponse();
+            });
+            assertEquals(sampleResponse(), response);
+        }
+        assertEquals(1, computations.get(), "Only the first request should compute the scenario.");
+        store.close();
+    }
+
+    @Test
+    void testWarmRestartReadsExistingEntries() {
+        ScenarioStore store = openStore();
+        store.getOrCompute("scenario", TimeToTargetResponse.class, this::sampleResponse);
+        store.close();
+
+        ScenarioStore restarted = openStore();
+        TimeToTargetResponse response = restarted.getOrCompute("scenario", TimeToTargetResponse.class, () -> {
+            fail("Restarted store should serve the mapped result without recomputing.");
+            return null;
+        });
+        assertEquals(sampleResponse(), response);
+        restarted.close();
+    }
+
+    @Test
+    void testKeyNormalizesDefaults() {
+        TimeToTargetRequest explicit = new TimeToTargetRequest();
+        explicit.setMinCtc(1000000);
+        explicit.setMaxCtc(2000000);
+        explicit.setMonthlyExpense(30000);
+        explicit.setTargetAmount(1000000);
+        explicit.setIncrement(500000.0);
+        explicit.setCurrentInvestments(0.0);
+        explicit.setInvestmentCagr(0.0);
+
+        TimeToTargetRequest defaults = new TimeToTargetRequest();
+        defaults.setMinCtc(1000000);
+        defaults.setMaxCtc(2000000);
+        defaults.setMonthlyExpense(30000);
+        defaults.setTargetAmount(1000000);
+
+        assertEquals(ScenarioStore.keyFor(explicit), ScenarioStore.keyFor(defaults));
+    }
+
+    @Test
+    void testDiscardsEntriesFromDifferentAlgorithmVersion() {
+        ScenarioStore store = openStore();
+        store.getOrCompute("scenario", TimeToTargetResponse.class, this::sampleResponse);
+        store.close();
+
+        ScenarioStore changed = openStore(FINGERPRINT + 1);
+        AtomicInteger computations = new AtomicInteger();
+        changed.getOrCompute("scenario", TimeToTargetResponse.class, () -> {
+            computations.incrementAndGet();
+            return sampleResponse();
+        });
+        assertEquals(1, computations.get(), "Results stored by other calculation code must be recomputed.");
+        changed.close();
+    }
+
+    @Test
+    void testSecondStoreOnSameFileFallsBackToComputing() {
+        ScenarioStore store = openStore();
+        store.getOrCompute("scenario", TimeToTargetResponse.class, this::sampleResponse);
+
+        ScenarioStore second = openStore();
+        AtomicInteger computations = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            second.getOrCompute("scenario", TimeToTargetResponse.class, () -> {
+                computations.incrementAndGet();
+                return sampleResponse();
+            });
+        }
+        assertEquals(2, computations.get(), "A store that can't take the file lock must compute every request.");
+        second.close();
+        store.close();
+
+        ScenarioStore reopened = openStore();
+        reopened.getOrCompute("scenario", TimeToTargetResponse.class, () -> {
+            fail("Lock should be released on close, so the next store serves the stored result.");
+            return null;
+        });
+        reopened.close();
+    }
+
+    @Test
+    void testDisabledStoreSkipsFingerprint() {
+        ScenarioStore store = new ScenarioStore(new ObjectMapper(), () -> {
+            throw new AssertionError("Fingerprint probes must not run when the store is disabled.");
+        }, false, tempDir.resolve("scenarios.dat").toString(), 1);
+        store.open();
+        assertEquals(sampleResponse(), store.getOrCompute("scenario", TimeToTargetResponse.class, this::sampleResponse));
+        assertFalse(Files.exists(tempDir.resolve("scenarios.dat")));
+        store.close();
+    }
+
+    @Test
+    void testFingerprintIsStable() {
+        assertEquals(FINGERPRINT, ScenarioStore.algorithmFingerprint(new TaxCalculationService()));
+    }
+
+    @Test
+    void testCompactionKeepsPopularScenarios() throws Exception {
+        ScenarioStore store = openStore();
+        // ~20 KB per result, so a 1 MB store fills up after about 50 distinct scenarios
+        List<TimeToTargetResult> rows = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            rows.add(TimeToTargetResult.builder().annualCtc(i * 1000.0).timeToTargetMonths((double) i).build());
+        }
+        TimeToTargetResponse large = TimeToTargetResponse.builder().results(rows).build();
+
+        store.getOrCompute("popular", TimeToTargetResponse.class, () -> large);
+        for (int i = 0; i < 5; i++) {
+            store.getOrCompute("popular", TimeToTargetResponse.class, () -> large);
+        }
+        for (int i = 0; i < 500; i++) {
+            store.getOrCompute("one-off-" + i, TimeToTargetResponse.class, () -> large);
+        }
+
+        assertEquals(1024 * 1024, Files.size(tempDir.resolve("scenarios.dat")), "Store must not grow past its capacity.");
+        TimeToTargetResponse response = store.getOrCompute("popular", TimeToTargetResponse.class, () -> {
+            fail("Popular scenario should survive compaction.");
+            return null;
+        });
+        assertEquals(large, response);
+        AtomicInteger computations = new AtomicInteger();
+        store.getOrCompute("one-off-0", TimeToTargetResponse.class, () -> {
+            computations.incrementAndGet();
+            return large;
+        });
+        assertEquals(1, computations.get(), "Early one-off scenarios should have been evicted.");
+        store.close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.taxcalculator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationExecutorTests {
+
+    @Test
+    void testVirtualThreadModeRunsTaskOnSimulationPool() {
+        SimulationExecutor executor = new SimulationExecutor(true, 2);
+        Thread caller = Thread.currentThread();
+
+        Thread worker = executor.run(Thread::currentThread);
+
+        assertNotSame(caller, worker);
+        assertTrue(worker.getName().startsWith("simulation-"), worker.getName());
+        assertEquals(42, executor.run(() -> 42));
+        executor.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadModeRethrowsTaskExceptionUnwrapped() {
+        SimulationExecutor executor = new SimulationExecutor(true, 2);
+        IllegalStateException failure = new IllegalStateException("simulation failed");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> executor.run(() -> {
+            throw failure;
+        }));
+
+        assertSame(failure, thrown);
+        executor.shutdown();
+    }
+
+    @Test
+    void testPlatformThreadModeRunsTaskInline() {
+        SimulationExecutor executor = new SimulationExecutor(false, 2);
+
+        assertSame(Thread.currentThread(), executor.run(Thread::currentThread));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.taxcalculator.service;
+
+import com.example.taxcalculator.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Differential tests: random inputs, biased towards slab boundaries, the 87A rebate threshold and the
+// 12,000-month simulation cap, are run through TaxCalculationService and the frozen reference copy.
+// Any optimized path in the service must produce the same results.
+//
+// Defaults keep `mvn test` fast. For a full run, e.g.:
+//   mvn test -Dtest=TaxCalculationDifferentialTests -Ddifferential.iterations=5000000 -Ddifferential.seed=42
+class TaxCalculationDifferentialTests {
+
+    private static final long SEED = Long.getLong("differential.seed", 20250101L);
+    // Time-to-target cases may simulate up to 12,000 months each, so they get a tenth of the budget
+    private static final int ITERATIONS = Integer.getInteger("differential.iterations", 200000);
+    private static final int SIMULATION_ITERATIONS = Math.max(1, ITERATIONS / 10);
+
+    private static final double STANDARD_DEDUCTION = 50000.0;
+    // Gross CTC at which each slab starts, plus the CTC at the 87A rebate threshold (11.5L taxable)
+    private static final double[] CTC_BOUNDARIES = {
+            450000, 850000, 1200000, 1250000, 1650000, 2050000, 2450000, STANDARD_DEDUCTION, 0
+    };
+    private static final double[] BOUNDARY_OFFSETS = { -1.0, -0.01, -1e-6, 0.0, 1e-6, 0.01, 1.0 };
+
+    private TaxCalculationService service;
+    private ReferenceTaxCalculationService reference;
+    private SplittableRandom random;
+
+    @BeforeEach
+    void setUp() {
+        service = new TaxCalculationService();
+        reference = new ReferenceTaxCalculationService();
+        random = new SplittableRandom(SEED);
+    }
+
+    @Test
+    void testTakeHomeMatchesReference() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            CtcRequest request = new CtcRequest();
+            request.setAnnualCtc(randomCtc());
+
+            TakeHomeResponse expected = reference.calculateTakeHome(request);
+            TakeHomeResponse actual = service.calculateTakeHome(request);
+            String context = "take-home, seed=" + SEED + ", case=" + i + ", " + request;
+            assertAmountEquals(expected.getYearlyTakeHome(), actual.getYearlyTakeHome(), context);
+            assertAmountEquals(expected.getYearlyTaxPayable(), actual.getYearlyTaxPayable(), context);
+            assertAmountEquals(expected.getMonthlyTakeHome(), actual.getMonthlyTakeHome(), context);
+            assertAmountEquals(expected.getMonthlyTaxPayable(), actual.getMonthlyTaxPayable(), context);
+        }
+    }
+
+    @Test
+    void testCtcForTakeHomeMatchesReference() {
+        for (int i = 0; i < SIMULATION_ITERATIONS; i++) {
+            CtcRequest ctcRequest = new CtcRequest();
+            ctcRequest.setAnnualCtc(randomCtc());
+            // Target take-homes that are actually produced by some CTC, including around the rebate cliff
+            double desired = reference.calculateTakeHome(ctcRequest).getYearlyTakeHome() + random.nextDouble(-5.0, 5.0);
+            TakeHomeRequestDto request = TakeHomeRequestDto.builder().desiredYearlyTakeHome(desired).build();
+
+            CtcResponseDto expected = reference.calculateCtcForTakeHome(request);
+            CtcResponseDto actual = service.calculateCtcForTakeHome(request);
+            String context = "ctc-for-take-home, seed=" + SEED + ", case=" + i + ", " + request;
+            assertAmountEquals(expected.getRequiredAnnualCtc(), actual.getRequiredAnnualCtc(), context);
+            assertEquals(expected.getMessage(), actual.getMessage(), context);
+        }
+    }
+
+    @Test
+    void testSavingsRangeMatchesReference() {
+        for (int i = 0; i < SIMULATION_ITERATIONS; i++) {
+            CtcRangeRequest request = new CtcRangeRequest();
+            double minCtc = randomCtc();
+            double maxCtc = random.nextInt(10) == 0 ? minCtc : minCtc + random.nextDouble(0, 5000000);
+            request.setMinCtc(minCtc);
+            request.setMaxCtc(maxCtc);
+            request.setMonthlyExpense(random.nextDouble(0, 300000));
+            request.setIncrement(randomIncrement(minCtc, maxCtc, 200));
+
+            List<RangeSavingsResult> expected = reference.calculateSavingsForRange(request).getResults();
+            List<RangeSavingsResult> actual = service.calculateSavingsForRange(request).getResults();
+            String context = "savings-range, seed=" + SEED + ", case=" + i + ", " + request;
+            assertEquals(expected.size(), actual.size(), context);
+            for (int j = 0; j < expected.size(); j++) {
+                assertAmountEquals(expected.get(j).getAnnualCtc(), actual.get(j).getAnnualCtc(), context);
+                assertAmountEquals(expected.get(j).getMonthlySavings(), actual.get(j).getMonthlySavings(), context);
+            }
+        }
+    }
+
+    @Test
+    void testTimeToTargetMatchesReference() {
+        for (int i = 0; i < SIMULATION_ITERATIONS; i++) {
+            TimeToTargetRequest request = random.nextInt(4) == 0 ? randomCapBoundaryRequest() : randomTimeToTargetRequest();
+            assertTimeToTargetMatches(request, "time-to-target, seed=" + SEED + ", case=" + i + ", " + request);
+        }
+    }
+
+    @Test
+    void testRequiredCtcReachesTargetUnderReference() {
+        for (int i = 0; i < SIMULATION_ITERATIONS; i++) {
+            RequiredCtcRequest request = new RequiredCtcRequest();
+            request.setMonthlyExpense(random.nextDouble(0, 200000));
+            request.setTargetAmount(randomLogUniform(1e4, 1e9));
+            // Up to twice the target, so "already met" and "growth alone is enough" come up often
+            request.setCurrentInvestments(random.nextInt(3) == 0 ? 0.0 : random.nextDouble(0, request.getTargetAmount() * 2));
+            if (random.nextInt(4) == 0) {
+                // Extreme growth over horizons near the cap, where (1 + r)^n overflows a double
+                request.setTargetMonths(11900 + random.nextInt(101));
+                request.setInvestmentCagr(random.nextDouble(0.5, 1.5));
+            } else {
+                request.setTargetMonths(1 + random.nextInt(random.nextBoolean() ? 120 : 12000));
+                request.setInvestmentCagr(random.nextInt(3) == 0 ? 0.0 : random.nextDouble(0, 0.3));
+            }
+
+            RequiredCtcResponse response = service.calculateRequiredCtcForTarget(request);
+            if (response.getRequiredAnnualCtc() <= 0) {
+                assertNotNull(response.getMessage(), "Rejected requests must explain why: " + request);
+                continue; // Beyond the supported CTC range, nothing to verify
+            }
+
+            TimeToTargetRequest forward = new TimeToTargetRequest();
+            forward.setMinCtc(response.getRequiredAnnualCtc());
+            forward.setMaxCtc(response.getRequiredAnnualCtc());
+            forward.setMonthlyExpense(request.getMonthlyExpense());
+            forward.setTargetAmount(request.getTargetAmount());
+            forward.setCurrentInvestments(request.getCurrentInvestments());
+            forward.setInvestmentCagr(request.getInvestmentCagr());
+
+            String context = "required-ctc, seed=" + SEED + ", case=" + i + ", " + request + " -> " + response;
+            assertTrue(Double.isFinite(response.getRequiredMonthlySavings()), context);
+            CtcRequest ctcRequest = new CtcRequest();
+            ctcRequest.setAnnualCtc(response.getRequiredAnnualCtc());
+            double monthlyTakeHome = reference.calculateTakeHome(ctcRequest).getMonthlyTakeHome();
+            assertTrue(monthlyTakeHome >= request.getMonthlyExpense() + response.getRequiredMonthlySavings() - 1e-6, context);
+            // Includes the "already met" / "growth alone is enough" answers, where the surplus is minimal
+            double months = reference.calculateTimeToTargetForRange(forward).getResults().get(0).getTimeToTargetMonths();
+            assertTrue(months <= request.getTargetMonths(), context + ", reference months=" + months);
+        }
+    }
+
+    private void assertTimeToTargetMatches(TimeToTargetRequest request, String context) {
+        List<TimeToTargetResult> expected = reference.calculateTimeToTargetForRange(request).getResults();
+        List<TimeToTargetResult> actual = service.calculateTimeToTargetForRange(request).getResults();
+        assertEquals(expected.size(), actual.size(), context);
+        for (int j = 0; j < expected.size(); j++) {
+            assertAmountEquals(expected.get(j).getAnnualCtc(), actual.get(j).getAnnualCtc(), context);
+            // Months are discrete, so they must match exactly (including POSITIVE_INFINITY)
+            assertEquals(expected.get(j).getTimeToTargetMonths(), actual.get(j).getTimeToTargetMonths(), context);
+        }
+    }
+
+    private TimeToTargetRequest randomTimeToTargetRequest() {
+        TimeToTargetRequest request = new TimeToTargetRequest();
+        double minCtc = randomCtc();
+        double maxCtc = random.nextInt(4) == 0 ? minCtc : minCtc + random.nextDouble(0, 3000000);
+        request.setMinCtc(minCtc);
+        request.setMaxCtc(maxCtc);
+        request.setMonthlyExpense(randomExpenseNearTakeHome(minCtc));
+        request.setTargetAmount(randomLogUniform(1e3, 1e9));
+        request.setIncrement(randomIncrement(minCtc, maxCtc, 20)); // Each row may simulate thousands of months
+        request.setCurrentInvestments(switch (random.nextInt(4)) {
+            case 0 -> null;
+            case 1 -> 0.0;
+            default -> random.nextDouble(0, request.getTargetAmount() * 1.2);
+        });
+        request.setInvestmentCagr(switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> 0.0;
+            case 2 -> -random.nextDouble(0, 0.1); // Negative CAGR is accepted and ignored by the loop
+            default -> random.nextDouble(0, 0.3);
+        });
+        return request;
+    }
+
+    // Single-CTC scenarios whose answer lands right around the 12,000-month safety cap
+    private TimeToTargetRequest randomCapBoundaryRequest() {
+        TimeToTargetRequest request = new TimeToTargetRequest();
+        double ctc = random.nextDouble(500000, 5000000);
+        request.setMinCtc(ctc);
+        request.setMaxCtc(ctc);
+        CtcRequest ctcRequest = new CtcRequest();
+        ctcRequest.setAnnualCtc(ctc);
+        double monthlyTakeHome = reference.calculateTakeHome(ctcRequest).getMonthlyTakeHome();
+        double monthlySavings = random.nextDouble(0.01, 1000.0);
+        request.setMonthlyExpense(monthlyTakeHome - monthlySavings);
+        double currentInvestments = random.nextBoolean() ? 0.0 : random.nextDouble(0, 100000);
+        request.setCurrentInvestments(currentInvestments);
+        request.setInvestmentCagr(0.0);
+        int months = 11990 + random.nextInt(21);
+        request.setTargetAmount(currentInvestments + monthlySavings * months + random.nextDouble(-1.0, 1.0));
+        return request;
+    }
+
+    // Mix of uniform CTCs and CTCs within a rupee of a slab or rebate boundary
+    private double randomCtc() {
+        if (random.nextBoolean()) {
+            return random.nextDouble(0, 50000000);
+        }
+        double boundary = CTC_BOUNDARIES[random.nextInt(CTC_BOUNDARIES.length)];
+        double offset = random.nextBoolean()
+                ? BOUNDARY_OFFSETS[random.nextInt(BOUNDARY_OFFSETS.length)]
+                : random.nextDouble(-1000, 1000);
+        return Math.max(0, boundary + offset);
+    }
+
+    // Expenses around the take-home at the given CTC, including exactly equal (zero net savings)
+    private double randomExpenseNearTakeHome(double ctc) {
+        CtcRequest ctcRequest = new CtcRequest();
+        ctcRequest.setAnnualCtc(ctc);
+        double monthlyTakeHome = reference.calculateTakeHome(ctcRequest).getMonthlyTakeHome();
+        return switch (random.nextInt(4)) {
+            case 0 -> monthlyTakeHome;
+            case 1 -> Math.max(0, monthlyTakeHome + random.nextDouble(-10, 10));
+            default -> random.nextDouble(0, monthlyTakeHome * 1.1 + 1);
+        };
+    }
+
+    // Null, non-positive (falls back to the 5L default) or a step that keeps the range to about maxRows rows
+    private Double randomIncrement(double minCtc, double maxCtc, int maxRows) {
+        double minimumStep = Math.max(1000, (maxCtc - minCtc) / maxRows);
+        return switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> 0.0;
+            case 2 -> -random.nextDouble(0, 100000);
+            default -> random.nextDouble(minimumStep, minimumStep * 20);
+        };
+    }
+
+    private double randomLogUniform(double min, double max) {
+        return Math.exp(random.nextDouble(Math.log(min), Math.log(max)));
+    }
+
+    private static void assertAmountEquals(double expected, double actual, String context) {
+        // Optimized paths may reorder floating-point operations, so allow a tiny relative drift
+        assertEquals(expected, actual, Math.max(1e-6, Math.abs(expected) * 1e-12), context);
+    }
+}
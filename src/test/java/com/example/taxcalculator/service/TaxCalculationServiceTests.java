@@ -1,5 +1,7 @@
 package com.example.taxcalculator.service;
 
+import com.example.taxcalculator.dto.RequiredCtcRequest;
+import com.example.taxcalculator.dto.RequiredCtcResponse;
 import com.example.taxcalculator.dto.TimeToTargetRequest;
 import com.example.taxcalculator.dto.TimeToTargetResponse;
 import com.example.taxcalculator.dto.TimeToTargetResult;
@@ -24,11 +26,9 @@ class TaxCalculationServiceTests {
         request.setMonthlyExpense(monthlyExpense);
         request.setTargetAmount(targetAmount);
         request.setIncrement(100000.0); // Increment doesn't matter if minCtc = maxCtc
-        // Defaults for new fields, can be overridden in specific tests
+        // Defaults for optional fields, can be overridden in specific tests
         request.setCurrentInvestments(0.0);
-        request.setLumpsumExpenses(0.0);
-        request.setMonthlySipAmount(0.0);
-        request.setSipCagr(0.0);
+        request.setInvestmentCagr(0.0);
         return request;
     }
 
@@ -66,40 +66,7 @@ class TaxCalculationServiceTests {
         TimeToTargetResult result = response.getResults().get(0);
         assertEquals(12.0, result.getTimeToTargetMonths(), "Time to target with current investments.");
     }
-
-    @Test
-    void testTimeToTarget_WithLumpsumExpense() {
-        TimeToTargetRequest request = createBasicRequest(1200000, 30000, 1000000);
-        request.setCurrentInvestments(200000.0);
-        request.setLumpsumExpenses(50000.0);
-
-        TimeToTargetResponse response = taxCalculationService.calculateTimeToTargetForRange(request);
-        TimeToTargetResult result = response.getResults().get(0);
-        assertEquals(13.0, result.getTimeToTargetMonths(), "Time to target with lumpsum expenses.");
-    }
-
-    @Test
-    void testTimeToTarget_WithSipNoCagr() {
-        TimeToTargetRequest request = createBasicRequest(1200000, 30000, 1000000);
-        request.setMonthlySipAmount(10000.0);
-
-        TimeToTargetResponse response = taxCalculationService.calculateTimeToTargetForRange(request);
-        TimeToTargetResult result = response.getResults().get(0);
-        assertEquals(13.0, result.getTimeToTargetMonths(), "Time to target with SIP but no CAGR.");
-    }
     
-    @Test
-    void testTimeToTarget_WithSipAndCagr() {
-        TimeToTargetRequest request = createBasicRequest(1200000, 50000, 500000);
-        request.setCurrentInvestments(50000.0);
-        request.setMonthlySipAmount(10000.0);
-        request.setSipCagr(0.12);
-
-        TimeToTargetResponse response = taxCalculationService.calculateTimeToTargetForRange(request);
-        TimeToTargetResult result = response.getResults().get(0);
-        assertEquals(8.0, result.getTimeToTargetMonths(), "Time to target with SIP and CAGR.");
-    }
-
     @Test
     void testUnachievable_ExpensesExceedIncome() {
         TimeToTargetRequest request = createBasicRequest(1000000, 90000, 1000000);
@@ -108,16 +75,6 @@ class TaxCalculationServiceTests {
         TimeToTargetResult result = response.getResults().get(0);
         assertEquals(Double.POSITIVE_INFINITY, result.getTimeToTargetMonths(), "Unachievable: Expenses exceed income.");
     }
-
-    @Test
-    void testUnachievable_SipPlusExpensesExceedIncome() {
-        TimeToTargetRequest request = createBasicRequest(1000000, 70000, 1000000);
-        request.setMonthlySipAmount(15000.0);
-
-        TimeToTargetResponse response = taxCalculationService.calculateTimeToTargetForRange(request);
-        TimeToTargetResult result = response.getResults().get(0);
-        assertEquals(Double.POSITIVE_INFINITY, result.getTimeToTargetMonths(), "Unachievable: SIP + Expenses exceed income.");
-    }
     
     @Test
     void testUnachievable_NetSavingsEffectivelyZero_NoGrowth() {
@@ -138,4 +95,93 @@ class TaxCalculationServiceTests {
         TimeToTargetResult result = response.getResults().get(0);
         assertEquals(Double.POSITIVE_INFINITY, result.getTimeToTargetMonths(), "Unachievable: Net savings strictly zero, no growth.");
     }
+
+    private RequiredCtcRequest createRequiredCtcRequest(double monthlyExpense, double targetAmount, int targetMonths) {
+        RequiredCtcRequest request = new RequiredCtcRequest();
+        request.setMonthlyExpense(monthlyExpense);
+        request.setTargetAmount(targetAmount);
+        request.setTargetMonths(targetMonths);
+        request.setCurrentInvestments(0.0);
+        request.setInvestmentCagr(0.0);
+        return request;
+    }
+
+    @Test
+    void testRequiredCtc_BelowRebateThreshold() {
+        // 30k expense + 50k savings a month: 9.6L take-home, no tax payable below the rebate threshold
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(createRequiredCtcRequest(30000, 600000, 12));
+        assertEquals(50000.0, response.getRequiredMonthlySavings(), 1e-6);
+        assertEquals(960000.0, response.getRequiredAnnualCtc(), 1e-6, "Take-home equals CTC below the rebate threshold.");
+    }
+
+    @Test
+    void testRequiredCtc_RoundTripsThroughTimeToTarget() {
+        RequiredCtcRequest request = createRequiredCtcRequest(60000, 5000000, 60);
+        request.setCurrentInvestments(300000.0);
+        request.setInvestmentCagr(0.12);
+
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(request);
+        assertTrue(response.getRequiredAnnualCtc() > 1200000, "Required CTC should be above the rebate threshold.");
+
+        TimeToTargetRequest forward = createBasicRequest(response.getRequiredAnnualCtc(), 60000, 5000000);
+        forward.setCurrentInvestments(300000.0);
+        forward.setInvestmentCagr(0.12);
+        TimeToTargetResult result = taxCalculationService.calculateTimeToTargetForRange(forward).getResults().get(0);
+        assertTrue(result.getTimeToTargetMonths() <= 60.0, "Required CTC should reach the target within the horizon.");
+    }
+
+    @Test
+    void testRequiredCtc_TargetAlreadyMet() {
+        RequiredCtcRequest request = createRequiredCtcRequest(40000, 500000, 24);
+        request.setCurrentInvestments(600000.0);
+
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(request);
+        assertEquals(0.01, response.getRequiredMonthlySavings(), "Take-home must still exceed expenses.");
+        assertNotNull(response.getMessage());
+
+        TimeToTargetRequest forward = createBasicRequest(response.getRequiredAnnualCtc(), 40000, 500000);
+        forward.setCurrentInvestments(600000.0);
+        TimeToTargetResult result = taxCalculationService.calculateTimeToTargetForRange(forward).getResults().get(0);
+        assertEquals(0.0, result.getTimeToTargetMonths(), "Target is already met at the required CTC.");
+    }
+
+    @Test
+    void testRequiredCtc_GrowthAloneReachesTarget() {
+        RequiredCtcRequest request = createRequiredCtcRequest(40000, 500000, 60);
+        request.setCurrentInvestments(400000.0);
+        request.setInvestmentCagr(0.12);
+
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(request);
+        assertEquals(0.01, response.getRequiredMonthlySavings());
+
+        TimeToTargetRequest forward = createBasicRequest(response.getRequiredAnnualCtc(), 40000, 500000);
+        forward.setCurrentInvestments(400000.0);
+        forward.setInvestmentCagr(0.12);
+        TimeToTargetResult result = taxCalculationService.calculateTimeToTargetForRange(forward).getResults().get(0);
+        assertTrue(result.getTimeToTargetMonths() <= 60.0, "Growth should reach the target within the horizon.");
+    }
+
+    @Test
+    void testRequiredCtc_HighGrowthLongHorizonStaysFinite() {
+        // (1 + 0.8/12)^12000 overflows a double; the answer must still cover expenses and round-trip
+        RequiredCtcRequest request = createRequiredCtcRequest(200000, 10000000, 12000);
+        request.setInvestmentCagr(0.8);
+
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(request);
+        assertTrue(Double.isFinite(response.getRequiredMonthlySavings()), "Required savings must be finite.");
+        assertTrue(response.getMonthlyTakeHome() > 200000, "Take-home must exceed the monthly expense.");
+
+        TimeToTargetRequest forward = createBasicRequest(response.getRequiredAnnualCtc(), 200000, 10000000);
+        forward.setInvestmentCagr(0.8);
+        TimeToTargetResult result = taxCalculationService.calculateTimeToTargetForRange(forward).getResults().get(0);
+        assertTrue(result.getTimeToTargetMonths() <= 12000.0, "Required CTC should reach the target within the horizon.");
+    }
+
+    @Test
+    void testRequiredCtc_UnreachableReturnsZeroWithMessage() {
+        // 1 Cr a month of expenses needs take-home beyond the 10 Cr CTC search range
+        RequiredCtcResponse response = taxCalculationService.calculateRequiredCtcForTarget(createRequiredCtcRequest(10000000, 1000000, 12));
+        assertEquals(0.0, response.getRequiredAnnualCtc());
+        assertNotNull(response.getMessage());
+    }
 }